@@ -1,5 +1,7 @@
 package com.mycompany.analyseur_lexicale;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -301,22 +303,24 @@ public class AnalyseurSyntaxique{
     }
     
     public void analyser() {
-        System.out.println("\nANALYSE SYNTAXIQUE ");
-        programme();
-        
-        if (erreurs.isEmpty()) {
-            System.out.println(" Analyse syntaxique reussie !");
-            System.out.println("  Aucune erreur detectee.");
-        } else {
-            System.out.println(" Analyse terminee avec " + erreurs.size() + " erreur(s) :");
-            System.out.println("─");
-            for (int i = 0; i < erreurs.size(); i++) {
-                System.out.println((i + 1) + ". " + erreurs.get(i));
+        // Pas de fermer() : cela fermerait System.out
+        SortieAnalyse sortie = SortieAnalyse.versSortieStandard(SortieAnalyse.Mode.COMPLET);
+        try {
+            try {
+                analyser(sortie);
+            } finally {
+                sortie.vider();
             }
-            System.out.println("─");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
     
+    public void analyser(SortieAnalyse sortie) throws IOException {
+        programme();
+        sortie.syntaxique(erreurs);
+    }
+    
     public List<String> getErreurs() {
         return erreurs;
     }
@@ -139,7 +139,10 @@ public class Analyseur_Lexicale {
         while ((c = br.read()) != -1) sb.append((char) c);
         br.close();
 
-        String text = sb.toString();
+        return analyserTexte(sb.toString());
+    }
+
+    public static List<Token> analyserTexte(String text) {
         List<Token> tokens = new ArrayList<>();
         String token = "";
         Etat etat = Etat.DEBUT;
@@ -310,41 +313,92 @@ public class Analyseur_Lexicale {
         return tokens;
     }
 
+    private static final String USAGE =
+            "Usage : [--mode=resume|erreurs|complet|jsonl] [--cache=<poids>] [--] [fichier...]";
+
     public static void main(String[] args) throws IOException {
-       String fichierPath = "test.py";
-        
+       List<String> fichiers = new ArrayList<>();
+       SortieAnalyse.Mode mode = SortieAnalyse.Mode.COMPLET;
+       long poidsCache = SessionAnalyse.POIDS_MAX_DEFAUT;
        
-        // 1. Analyse lexicale
-        System.out.println(" ANALYSE LEXICALE ");
-        List<Token> tokens = analyserFichier(fichierPath);
+       boolean options = true;
+       for (String arg : args) {
+           if (options && arg.equals("--")) {
+               options = false;
+           } else if (options && arg.startsWith("--mode=")) {
+               mode = SortieAnalyse.lireMode(arg.substring("--mode=".length()));
+               if (mode == null) usage("Mode inconnu : " + arg);
+           } else if (options && arg.startsWith("--cache=")) {
+               try {
+                   poidsCache = Long.parseLong(arg.substring("--cache=".length()));
+               } catch (NumberFormatException e) {
+                   poidsCache = -1;
+               }
+               if (poidsCache < 0) usage("Taille de cache invalide : " + arg);
+           } else if (options && arg.startsWith("--")) {
+               usage("Option inconnue : " + arg);
+           } else {
+               fichiers.add(arg);
+           }
+       }
+       if (fichiers.isEmpty()) {
+           fichiers.add("test.py");
+       }
+       SortieAnalyse sortie = SortieAnalyse.versSortieStandard(mode);
+       // Session (cache) seulement pour plusieurs fichiers ; les tokens ne
+       // sont gardes que si le mode les affiche tous
+       SessionAnalyse session = fichiers.size() > 1
+               ? new SessionAnalyse(poidsCache,
+                       mode == SortieAnalyse.Mode.COMPLET || mode == SortieAnalyse.Mode.JSONL)
+               : null;
+       int fichiersEnErreur = 0;
         
-        int erreurLexicales = 0;
-        for (Token t : tokens) {
-            System.out.println(t);
-            if (t.estErreur()) {
-                erreurLexicales++;
+        try {
+            for (String fichierPath : fichiers) {
+                if (fichiers.size() > 1) {
+                    sortie.debutFichier(fichierPath);
+                }
+                
+                // 1. Analyse lexicale + 2. Analyse syntaxique (resultat partage
+                // entre fichiers identiques)
+                SessionAnalyse.Resultat res;
+                try {
+                    res = session != null ? session.analyserFichier(fichierPath)
+                                          : SessionAnalyse.analyserSansCache(fichierPath);
+                } catch (IOException e) {
+                    sortie.erreurFichier(fichierPath, e.toString());
+                    fichiersEnErreur++;
+                    continue;
+                }
+                
+                sortie.debutLexical();
+                for (Token t : res.getTokens()) {
+                    sortie.token(t);
+                }
+                sortie.finLexical(res.getErreurLexicales());
+                sortie.syntaxique(res.getErreursSyntaxiques());
+                
+                // Resume
+                sortie.resume(res.getErreurLexicales(), res.getErreursSyntaxiques().size());
             }
+            
+            if (session != null) {
+                sortie.statistiquesSession(session.getSucces(), session.getEchecs());
+            }
+        } finally {
+            // Toujours vider le tampon, meme si l'analyse echoue
+            sortie.vider();
         }
         
-        if (erreurLexicales > 0) {
-            System.out.println("\n " + erreurLexicales + " erreur(s) lexicale(s)");
-        } else {
-            System.out.println("\n Aucune erreur lexicale");
-        }
-        
-        // 2. Analyse syntaxique
-        AnalyseurSyntaxique parser = new AnalyseurSyntaxique(tokens);
-        parser.analyser();
-        
-        // Resume
-        System.out.println("\n RESUME FINAL ");
-        if (erreurLexicales == 0 && !parser.aDesErreurs()) {
-            System.out.println(" CODE VALIDE");
-        } else {
-            System.out.println(" CODE AVEC ERREURS ");
-            System.out.println("  Erreurs lexicales : " + erreurLexicales);
-            System.out.println("  Erreurs syntaxiques : " + parser.getErreurs().size());
+        if (fichiersEnErreur > 0) {
+            System.exit(1);
         }
 
     }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
 }
@@ -0,0 +1,205 @@
+package com.mycompany.analyseur_lexicale;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cache partage pendant une execution : les fichiers au contenu identique
+// ne sont analyses (lexical + syntaxique) qu'une seule fois.
+// La taille du cache est bornee par un poids, pas par un nombre d'entrees :
+// poids d'un fichier = tokens conserves + erreurs syntaxiques + 1.
+public class SessionAnalyse {
+
+    public static class Resultat {
+        private final List<Token> tokens;
+        private final int erreurLexicales;
+        private final List<String> erreursSyntaxiques;
+
+        Resultat(List<Token> tokens, int erreurLexicales, List<String> erreursSyntaxiques) {
+            this.tokens = Collections.unmodifiableList(tokens);
+            this.erreurLexicales = erreurLexicales;
+            this.erreursSyntaxiques = Collections.unmodifiableList(erreursSyntaxiques);
+        }
+
+        // Tous les tokens, ou seulement ceux en erreur si la session
+        // ne conserve pas les tokens
+        public List<Token> getTokens() { return tokens; }
+        public int getErreurLexicales() { return erreurLexicales; }
+        public List<String> getErreursSyntaxiques() { return erreursSyntaxiques; }
+        public boolean estValide() {
+            return erreurLexicales == 0 && erreursSyntaxiques.isEmpty();
+        }
+
+        long poids() {
+            return tokens.size() + erreursSyntaxiques.size() + 1;
+        }
+    }
+
+    public static final long POIDS_MAX_DEFAUT = 100000;
+
+    private final long poidsMax;
+    private final boolean conserverTokens;
+
+    // LinkedHashMap en ordre d'acces = LRU ; acces proteges par synchronized (cache)
+    private final LinkedHashMap<ByteBuffer, Resultat> cache =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private long poidsTotal;
+
+    // Analyses en cours : un doublon concurrent attend le premier resultat
+    private final ConcurrentHashMap<ByteBuffer, CompletableFuture<Resultat>> enCours =
+            new ConcurrentHashMap<>();
+
+    private final AtomicLong succes = new AtomicLong();
+    private final AtomicLong echecs = new AtomicLong();
+
+    public SessionAnalyse() {
+        this(POIDS_MAX_DEFAUT, true);
+    }
+
+    public SessionAnalyse(long poidsMax, boolean conserverTokens) {
+        this.poidsMax = poidsMax;
+        this.conserverTokens = conserverTokens;
+    }
+
+    public Resultat analyserFichier(String fichierPath) throws IOException {
+        byte[] contenu = Files.readAllBytes(Paths.get(fichierPath));
+        ByteBuffer cle = ByteBuffer.wrap(empreinte(contenu));
+
+        Resultat res = chercher(cle);
+        if (res != null) {
+            succes.incrementAndGet();
+            return res;
+        }
+
+        CompletableFuture<Resultat> calcul = new CompletableFuture<>();
+        CompletableFuture<Resultat> existant = enCours.putIfAbsent(cle, calcul);
+        if (existant != null) {
+            res = attendre(existant);
+            succes.incrementAndGet();
+            return res;
+        }
+
+        try {
+            // Une analyse concurrente a pu se terminer entre-temps
+            res = chercher(cle);
+            if (res != null) {
+                succes.incrementAndGet();
+            } else {
+                echecs.incrementAndGet();
+                res = analyser(contenu);
+                ajouter(cle, res);
+            }
+            calcul.complete(res);
+            return res;
+        } catch (RuntimeException | Error e) {
+            calcul.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCours.remove(cle);
+        }
+    }
+
+    // Analyse sans passer par le cache (un seul fichier : rien a reutiliser)
+    public static Resultat analyserSansCache(String fichierPath) throws IOException {
+        return resultat(Analyseur_Lexicale.analyserFichier(fichierPath), true);
+    }
+
+    private Resultat analyser(byte[] contenu) {
+        // Meme decodage que FileReader (jeu de caracteres par defaut)
+        return resultat(Analyseur_Lexicale.analyserTexte(
+                new String(contenu, Charset.defaultCharset())), conserverTokens);
+    }
+
+    private static Resultat resultat(List<Token> tokens, boolean conserverTokens) {
+        List<Token> erreursLexicales = new ArrayList<>();
+        for (Token t : tokens) {
+            if (t.estErreur()) erreursLexicales.add(t);
+        }
+
+        AnalyseurSyntaxique parser = new AnalyseurSyntaxique(tokens);
+        parser.programme();
+
+        return new Resultat(conserverTokens ? tokens : erreursLexicales,
+                erreursLexicales.size(), parser.getErreurs());
+    }
+
+    private Resultat chercher(ByteBuffer cle) {
+        synchronized (cache) {
+            return cache.get(cle);
+        }
+    }
+
+    private void ajouter(ByteBuffer cle, Resultat res) {
+        long poids = res.poids();
+        if (poids > poidsMax) return;
+
+        synchronized (cache) {
+            Resultat ancien = cache.put(cle, res);
+            if (ancien != null) poidsTotal -= ancien.poids();
+            poidsTotal += poids;
+
+            // Retirer les entrees les moins recemment utilisees
+            Iterator<Resultat> it = cache.values().iterator();
+            while (poidsTotal > poidsMax && it.hasNext()) {
+                poidsTotal -= it.next().poids();
+                it.remove();
+            }
+        }
+    }
+
+    private static Resultat attendre(CompletableFuture<Resultat> calcul) {
+        try {
+            return calcul.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private static byte[] empreinte(byte[] contenu) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(contenu);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public long getSucces() { return succes.get(); }
+    public long getEchecs() { return echecs.get(); }
+
+    public int taille() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getPoids() {
+        synchronized (cache) {
+            return poidsTotal;
+        }
+    }
+
+    public void vider() {
+        synchronized (cache) {
+            cache.clear();
+            poidsTotal = 0;
+        }
+        succes.set(0);
+        echecs.set(0);
+    }
+}
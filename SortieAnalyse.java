@@ -0,0 +1,335 @@
+package com.mycompany.analyseur_lexicale;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.List;
+
+public class SortieAnalyse {
+
+    public enum Mode {
+        RESUME, ERREURS, COMPLET, JSONL
+    }
+
+    private static final int CAPACITE_DEFAUT = 1 << 16;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Mode mode;
+    private final WritableByteChannel canal;
+    private final ByteBuffer tampon;
+    private final CharBuffer caracteres;
+    private final CharsetEncoder encodeur;
+
+    public SortieAnalyse(Mode mode, WritableByteChannel canal, int capacite) {
+        this(mode, canal, Charset.defaultCharset(), capacite);
+    }
+
+    public SortieAnalyse(Mode mode, WritableByteChannel canal, Charset charset, int capacite) {
+        this.mode = mode;
+        this.canal = canal;
+        this.tampon = ByteBuffer.allocate(Math.max(capacite, 16));
+        this.caracteres = CharBuffer.allocate(1024);
+        // Comme System.out : caractere non representable -> remplacement
+        this.encodeur = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    // Passe par System.out (et son encodage) pour ne pas melanger l'ordre
+    // des ecritures avec celles faites directement sur System.out.
+    public static SortieAnalyse versSortieStandard(Mode mode) {
+        return new SortieAnalyse(mode, Channels.newChannel(System.out),
+                charsetSortieStandard(), CAPACITE_DEFAUT);
+    }
+
+    private static Charset charsetSortieStandard() {
+        String nom = System.getProperty("stdout.encoding",
+                System.getProperty("sun.stdout.encoding"));
+        if (nom != null) {
+            try {
+                return Charset.forName(nom);
+            } catch (IllegalArgumentException e) {
+                // encodage inconnu : on garde celui par defaut
+            }
+        }
+        return Charset.defaultCharset();
+    }
+
+    public static Mode lireMode(String nom) {
+        switch (nom) {
+            case "resume":  return Mode.RESUME;
+            case "erreurs": return Mode.ERREURS;
+            case "complet": return Mode.COMPLET;
+            case "jsonl":   return Mode.JSONL;
+            default:        return null;
+        }
+    }
+
+    public Mode getMode() { return mode; }
+
+    // Traitement par lot
+
+    public void debutFichier(String chemin) throws IOException {
+        switch (mode) {
+            case JSONL:
+                ecrire("{\"type\":\"fichier\",\"chemin\":");
+                ecrireJson(chemin);
+                ecrire("}\n");
+                break;
+            default:
+                ecrire("\n=== ");
+                ecrire(chemin);
+                ecrire(" ===\n");
+                break;
+        }
+    }
+
+    public void erreurFichier(String chemin, String message) throws IOException {
+        if (mode == Mode.JSONL) {
+            ecrire("{\"type\":\"erreur_fichier\",\"chemin\":");
+            ecrireJson(chemin);
+            ecrire(",\"message\":");
+            ecrireJson(message);
+            ecrire("}\n");
+            return;
+        }
+        ecrire("ERREUR FICHIER : ");
+        ecrire(chemin);
+        ecrire(" (");
+        ecrire(message);
+        ecrire(")\n");
+    }
+
+    public void statistiquesSession(long succes, long echecs) throws IOException {
+        if (mode == Mode.JSONL) {
+            ecrire("{\"type\":\"session\",\"fichiers\":");
+            ecrire(succes + echecs);
+            ecrire(",\"succes_cache\":");
+            ecrire(succes);
+            ecrire(",\"echecs_cache\":");
+            ecrire(echecs);
+            ecrire("}\n");
+            return;
+        }
+        if (mode == Mode.ERREURS) return;
+
+        ecrire("\n SESSION \n");
+        ecrire("  Fichiers analyses : ");
+        ecrire(succes + echecs);
+        ecrire("\n  Resultats repris du cache : ");
+        ecrire(succes);
+        ecrire("\n  Analyses effectuees (hors cache) : ");
+        ecrire(echecs);
+        ecrire('\n');
+    }
+
+    // Analyse lexicale
+
+    public void debutLexical() throws IOException {
+        if (mode == Mode.COMPLET) ecrire(" ANALYSE LEXICALE \n");
+    }
+
+    public void token(Token t) throws IOException {
+        switch (mode) {
+            case COMPLET:
+                if (t.estErreur()) {
+                    ecrire("ERREUR LEXICALE : ");
+                    ecrire(t.getValeur());
+                } else {
+                    ecrire(t.getValeur());
+                    ecrire(" : ");
+                    ecrire(t.getType());
+                }
+                ecrire('\n');
+                break;
+            case ERREURS:
+                if (t.estErreur()) {
+                    ecrire("ERREUR LEXICALE : ");
+                    ecrire(t.getValeur());
+                    ecrire('\n');
+                }
+                break;
+            case JSONL:
+                ecrire(t.estErreur() ? "{\"type\":\"erreur_lexicale\",\"valeur\":"
+                                     : "{\"type\":\"token\",\"valeur\":");
+                ecrireJson(t.getValeur());
+                if (!t.estErreur()) {
+                    ecrire(",\"categorie\":");
+                    ecrireJson(t.getType());
+                }
+                ecrire("}\n");
+                break;
+            default:
+                break;
+        }
+    }
+
+    public void finLexical(int erreurLexicales) throws IOException {
+        if (mode != Mode.COMPLET) return;
+        if (erreurLexicales > 0) {
+            ecrire("\n ");
+            ecrire(erreurLexicales);
+            ecrire(" erreur(s) lexicale(s)\n");
+        } else {
+            ecrire("\n Aucune erreur lexicale\n");
+        }
+    }
+
+    // Analyse syntaxique
+
+    public void syntaxique(List<String> erreurs) throws IOException {
+        switch (mode) {
+            case COMPLET:
+                ecrire("\nANALYSE SYNTAXIQUE \n");
+                if (erreurs.isEmpty()) {
+                    ecrire(" Analyse syntaxique reussie !\n");
+                    ecrire("  Aucune erreur detectee.\n");
+                } else {
+                    ecrire(" Analyse terminee avec ");
+                    ecrire(erreurs.size());
+                    ecrire(" erreur(s) :\n─\n");
+                    for (int i = 0; i < erreurs.size(); i++) {
+                        ecrire(i + 1);
+                        ecrire(". ");
+                        ecrire(erreurs.get(i));
+                        ecrire('\n');
+                    }
+                    ecrire("─\n");
+                }
+                break;
+            case ERREURS:
+                for (int i = 0; i < erreurs.size(); i++) {
+                    ecrire(erreurs.get(i));
+                    ecrire('\n');
+                }
+                break;
+            case JSONL:
+                for (int i = 0; i < erreurs.size(); i++) {
+                    ecrire("{\"type\":\"erreur_syntaxique\",\"message\":");
+                    ecrireJson(erreurs.get(i));
+                    ecrire("}\n");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Resume
+
+    public void resume(int erreurLexicales, int erreurSyntaxiques) throws IOException {
+        if (mode == Mode.JSONL) {
+            ecrire("{\"type\":\"resume\",\"erreurs_lexicales\":");
+            ecrire(erreurLexicales);
+            ecrire(",\"erreurs_syntaxiques\":");
+            ecrire(erreurSyntaxiques);
+            ecrire("}\n");
+            return;
+        }
+        if (mode == Mode.ERREURS) return;
+
+        ecrire("\n RESUME FINAL \n");
+        if (erreurLexicales == 0 && erreurSyntaxiques == 0) {
+            ecrire(" CODE VALIDE\n");
+        } else {
+            ecrire(" CODE AVEC ERREURS \n");
+            ecrire("  Erreurs lexicales : ");
+            ecrire(erreurLexicales);
+            ecrire("\n  Erreurs syntaxiques : ");
+            ecrire(erreurSyntaxiques);
+            ecrire('\n');
+        }
+    }
+
+    public void vider() throws IOException {
+        encoder();
+        envoyer();
+    }
+
+    public void fermer() throws IOException {
+        vider();
+        canal.close();
+    }
+
+    // Les caracteres sont copies dans un CharBuffer reutilisable puis
+    // encodes par blocs dans le tampon d'octets (sans String intermediaire)
+
+    private void encoder() throws IOException {
+        caracteres.flip();
+        while (encodeur.encode(caracteres, tampon, false) == CoderResult.OVERFLOW) {
+            envoyer();
+        }
+        caracteres.compact();
+    }
+
+    private void envoyer() throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        tampon.clear();
+    }
+
+    private void ecrire(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            ecrire(s.charAt(i));
+        }
+    }
+
+    private void ecrire(char c) throws IOException {
+        if (!caracteres.hasRemaining()) encoder();
+        caracteres.put(c);
+    }
+
+    private void ecrire(int n) throws IOException {
+        ecrire((long) n);
+    }
+
+    private void ecrire(long v) throws IOException {
+        if (v < 0) {
+            ecrire('-');
+            v = -v;
+        }
+        long diviseur = 1;
+        while (diviseur <= v / 10) diviseur *= 10;
+        while (diviseur > 0) {
+            ecrire((char) ('0' + (v / diviseur)));
+            v %= diviseur;
+            diviseur /= 10;
+        }
+    }
+
+    private void ecrireJson(String s) throws IOException {
+        ecrire('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':  ecrire("\\\""); break;
+                case '\\': ecrire("\\\\"); break;
+                case '\n': ecrire("\\n"); break;
+                case '\r': ecrire("\\r"); break;
+                case '\t': ecrire("\\t"); break;
+                default:
+                    // Hors ASCII imprimable : echappement JSON, pour que le flux
+                    // reste exact quel que soit l'encodage de la console
+                    if (c < 0x20 || c >= 0x7F) {
+                        ecrire("\\u");
+                        ecrire(HEX[(c >> 12) & 0xF]);
+                        ecrire(HEX[(c >> 8) & 0xF]);
+                        ecrire(HEX[(c >> 4) & 0xF]);
+                        ecrire(HEX[c & 0xF]);
+                    } else {
+                        ecrire(c);
+                    }
+            }
+        }
+        ecrire('"');
+    }
+}